@@ -0,0 +1,216 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * A persisted index of the training data files under a root directory, so the
+ * (possibly slow or network-backed) directory tree does not need to be listed
+ * again on every run.
+ * </p>
+ *
+ * <p>
+ * The manifest is a compact binary file holding, for each leaf directory, its
+ * relative path, category (i.e. label), last-modified time, and a table of file
+ * names. When loaded, each directory's last-modified time is compared against
+ * the disk, and only directories that changed (i.e. had files added or removed)
+ * are listed again. Directories are checked and listed in parallel, one virtual
+ * thread each.
+ * </p>
+ */
+public class DatasetManifest {
+	private static final int MAGIC = 0x4F43524D;  // "OCRM"
+	private static final int VERSION = 1;
+
+	/** One leaf directory of training data files, all sharing the same category. */
+	public static final class Directory {
+		public final String path;         // path (relative to root) to this directory
+		public final int category;        // expected output neuron index for every file in this directory
+		public final long lastModified;   // directory mtime when listed; changes when files are added or removed
+		public final String[] files;      // file names (relative to path)
+
+		Directory(String path, int category, long lastModified, String[] files) {
+			this.path = path;
+			this.category = category;
+			this.lastModified = lastModified;
+			this.files = files;
+		}
+	}
+
+	public final File root;
+	public final List<Directory> directories;
+
+	private DatasetManifest(File root, List<Directory> directories) {
+		this.root = root;
+		this.directories = Collections.unmodifiableList(directories);
+	}
+
+	/** @return The total number of files across all directories. */
+	public int size() {
+		int size = 0;
+		for (Directory dir : directories)
+			size += dir.files.length;
+		return size;
+	}
+
+	/**
+	 * Loads the manifest from <code>manifestFile</code>, re-listing any of the
+	 * requested directories which are new or have changed since it was saved. If
+	 * anything changed, the updated manifest is saved back to
+	 * <code>manifestFile</code>.
+	 *
+	 * @param root         - The directory all paths are relative to.
+	 * @param manifestFile - Where the manifest is persisted. Need not exist yet.
+	 * @param requested    - Each directory path (relative to root) to index,
+	 *                     mapped to its category. Iteration order is preserved.
+	 *                     Missing directories are reported and skipped.
+	 * @return The up-to-date manifest
+	 * @throws IOException - If any directory could not be listed.
+	 */
+	public static DatasetManifest load(File root, File manifestFile, Map<String, Integer> requested) throws IOException {
+		Map<String, Directory> cached = read(manifestFile);
+
+		List<Future<Directory>> futures = new ArrayList<>(requested.size());
+		try (ExecutorService exec = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (Map.Entry<String, Integer> entry : requested.entrySet()) {
+				String path = entry.getKey();
+				int category = entry.getValue();
+				Directory prev = cached.get(path);
+				futures.add(exec.submit(() -> scan(root, path, category, prev)));
+			}
+		}  // waits for all tasks
+
+		List<Directory> directories = new ArrayList<>(futures.size());
+		boolean dirty = false;
+		for (Future<Directory> future : futures) {
+			Directory dir;
+			try {
+				dir = future.get();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while scanning training data", ex);
+			} catch (ExecutionException ex) {
+				if (ex.getCause() instanceof IOException ioEx)
+					throw ioEx;
+				throw new IOException(ex.getCause());
+			}
+			if (dir == null)
+				continue;  // missing directory; skip
+			if (dir != cached.get(dir.path))
+				dirty = true;  // new or re-listed
+			directories.add(dir);
+		}
+		// Every kept directory matches the cache, so the only other change is a removed one.
+		if (directories.size() != cached.size())
+			dirty = true;
+
+		DatasetManifest manifest = new DatasetManifest(root, directories);
+		if (dirty) {
+			try {
+				manifest.save(manifestFile);
+			} catch (IOException ex) {
+				// Not fatal: the manifest is only a cache. We'll just rebuild it next time.
+				System.err.println("WARNING: Could not save dataset manifest: " + manifestFile.getPath());
+				ex.printStackTrace();
+			}
+		}
+		return manifest;
+	}
+
+	/**
+	 * Checks one directory against its cached entry, listing it again only if it
+	 * has changed.
+	 *
+	 * @return <code>prev</code> if still valid, a newly listed Directory if not,
+	 *         or <code>null</code> if the directory is missing.
+	 */
+	private static Directory scan(File root, String path, int category, Directory prev) throws IOException {
+		Path dir = new File(root, path).toPath();
+		if (!Files.isDirectory(dir)) {
+			System.err.println("Missing training data directory: " + dir);
+			return null;
+		}
+
+		long lastModified = Files.getLastModifiedTime(dir).toMillis();
+		if (prev != null && prev.category == category && prev.lastModified == lastModified)
+			return prev;  // unchanged
+
+		String[] files;
+		try (Stream<Path> stream = Files.list(dir)) {
+			files = stream.map(p -> p.getFileName().toString()).sorted().toArray(String[]::new);
+		}
+		return new Directory(path, category, lastModified, files);
+	}
+
+	/**
+	 * @return The directories stored in the manifest, keyed by path. Empty if the
+	 *         file does not exist, or can not be read (in which case everything
+	 *         will be re-listed).
+	 */
+	private static Map<String, Directory> read(File manifestFile) {
+		Map<String, Directory> cached = new HashMap<>();
+		if (!manifestFile.isFile())
+			return cached;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestFile.toPath())))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IOException("Unrecognized dataset manifest format");
+
+			int dirCount = in.readInt();
+			for (int d = 0; d < dirCount; d++) {
+				String path = in.readUTF();
+				int category = in.readInt();
+				long lastModified = in.readLong();
+				String[] files = new String[in.readInt()];
+				for (int f = 0; f < files.length; f++)
+					files[f] = in.readUTF();
+				cached.put(path, new Directory(path, category, lastModified, files));
+			}
+		} catch (IOException ex) {
+			System.err.println("WARNING: Ignoring unreadable dataset manifest: " + manifestFile.getPath());
+			ex.printStackTrace();
+			cached.clear();
+		}
+		return cached;
+	}
+
+	/**
+	 * Writes this manifest to a temporary file first, then moves it into place, so
+	 * an interrupted save never leaves behind a truncated manifest.
+	 */
+	public void save(File manifestFile) throws IOException {
+		Path target = manifestFile.toPath().toAbsolutePath();
+		Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(directories.size());
+			for (Directory dir : directories) {
+				out.writeUTF(dir.path);
+				out.writeInt(dir.category);
+				out.writeLong(dir.lastModified);
+				out.writeInt(dir.files.length);
+				for (String file : dir.files)
+					out.writeUTF(file);
+			}
+		}
+		Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+}
@@ -2,7 +2,8 @@
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Random;
 
 import javax.imageio.ImageIO;
@@ -17,6 +18,9 @@ public class OCR {
 	// Where we can load input data from
 	public static final File IMG_DIR = new File("C:\\Users\\mathh\\Pictures\\NIST SD19\\by_field");
 	
+	// Cached index of the files in IMG_DIR (see DatasetManifest)
+	public static final File MANIFEST_FILE = new File("by_field.manifest");
+	
 	public static double grey(BufferedImage img, int x, int y) {
 		int rgb = img.getRGB(x, y);
 		int blue = rgb & 0xFF;
@@ -51,9 +55,7 @@ public class OCR {
 			}
 	}
 
-	public static void main(String[] args) {
-		Path prefix = IMG_DIR.toPath();  // same as IMG_DIR, but type java.nio.file.Path
-		
+	public static void main(String[] args) throws IOException {
 		String[] categories = new String[10 + 26 + 26]; // { '0', ..., '9', 'A', ..., 'Z', 'a', ..., 'z' }
 		for (char digit = '0'; digit <= '9'; digit++)
 			categories[digit - '0'] = "digit\\" + Integer.toHexString((int) digit);
@@ -75,17 +77,19 @@ public class OCR {
 		TrainingData trainingData = new TrainingData();
 		
 		final class IOPair implements TrainingDataPair {
-			final String path;  // path (relative to prefix) to input .png file
+			final File dir;     // directory containing the input .png file (shared by all pairs in that directory)
+			final String name;  // file name of the input .png file
 			final int c;        // expected output neuron index (i.e. category)
 			
-			IOPair(String path, int c) {
-				this.path = path;
+			IOPair(File dir, String name, int c) {
+				this.dir = dir;
+				this.name = name;
 				this.c = c;
 			}
 			
 			@Override
 			public void input(SimpleMatrix in, int col) throws IOException {
-				readImg(new File(IMG_DIR, path), in, col);
+				readImg(new File(dir, name), in, col);
 			}
 			
 			@Override
@@ -97,10 +101,12 @@ public class OCR {
 			
 			@Override
 			public String toString() {
-				return path;  // for debugging
+				return new File(dir, name).getPath();  // for debugging
 			}
 		}
 		
+		// Each category directory (relative to IMG_DIR) mapped to its category index
+		Map<String, Integer> dirs = new LinkedHashMap<>();
 		for (int n = 0; n <= 7; n++) {  // "hsf_{n}" sub-folder
 			if (n == 5)  continue;  // no folder hsf_5 in NIST SD19
 			
@@ -110,16 +116,17 @@ public class OCR {
 				continue;  // skip
 			}
 			
-			for (int c = 0; c < categories.length; c++) {
-				File cDir = new File(hsfDir, categories[c]);
-				if (!cDir.isDirectory()) {
-					System.err.println("Missing training data directory: " + cDir.getPath());
-					continue;  // skip
-				}
-				
-				for (File file : cDir.listFiles())
-					trainingData.add(new IOPair(prefix.relativize(file.toPath()).toString(), c));
-			}
+			for (int c = 0; c < categories.length; c++)
+				dirs.put("hsf_" + n + "\\" + categories[c], c);
+		}
+		
+		// Only directories which changed since the last run are listed again.
+		DatasetManifest manifest = DatasetManifest.load(IMG_DIR, MANIFEST_FILE, dirs);
+		trainingData.ensureCapacity(manifest.size());
+		for (DatasetManifest.Directory d : manifest.directories) {
+			File cDir = new File(IMG_DIR, d.path);
+			for (String name : d.files)
+				trainingData.add(new IOPair(cDir, name, d.category));
 		}
 		
 		// 3. Train (@ learninRate, η (eta))